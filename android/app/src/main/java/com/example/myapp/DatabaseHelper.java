@@ -15,6 +15,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String DATABASE_NAME = "protein_tracker.db";
     private static final int DATABASE_VERSION = 1;
     private static final String PREFS_NAME = "MyAppPrefs";
+    static final String DAILY_TOTAL_QUERY = "SELECT SUM(proteinAmount) FROM protein_intakes WHERE datetime LIKE ?";
     private Context context;
 
     public DatabaseHelper(Context context) {
@@ -39,10 +40,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             
             // First try to get from SQLite database
             SQLiteDatabase db = this.getReadableDatabase();
-            String query = "SELECT SUM(proteinAmount) FROM protein_intakes WHERE datetime LIKE ?";
             String[] selectionArgs = {dateStr + "%"};
             
-            Cursor cursor = db.rawQuery(query, selectionArgs);
+            Cursor cursor = QueryProfiler.getInstance().rawQuery(db, DAILY_TOTAL_QUERY, selectionArgs);
             double sqliteTotal = 0.0;
             if (cursor != null) {
                 try {
@@ -37,6 +37,9 @@ public class MainActivity extends FlutterFragmentActivity {
                             
                             result.success(true);
                             break;
+                        case "dumpSlowQueries":
+                            result.success(QueryProfiler.getInstance().getSlowQueries());
+                            break;
                         default:
                             result.notImplemented();
                             break;
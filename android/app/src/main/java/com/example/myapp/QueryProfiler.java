@@ -0,0 +1,268 @@
+package com.invictus.carmaintenance;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public class QueryProfiler {
+    private static final String TAG = "QueryProfiler";
+    static final long DEFAULT_SLOW_QUERY_THRESHOLD_MS = 50;
+    static final int MAX_SLOW_QUERIES = 50;
+    static final int MAX_PLAN_ATTEMPTS = 3;
+
+    private static final QueryProfiler INSTANCE = new QueryProfiler();
+
+    interface Clock {
+        long nanoTime();
+    }
+
+    // Query plans are captured once per distinct SQL string; failed captures are retried a few times
+    private final Map<String, List<String>> queryPlans = new HashMap<>();
+    private final Map<String, PlanFailure> planErrors = new HashMap<>();
+    private final Set<String> fullScanQueries = new HashSet<>();
+    private final ArrayDeque<Map<String, Object>> slowQueries = new ArrayDeque<>();
+    private long slowQueryThresholdMs = DEFAULT_SLOW_QUERY_THRESHOLD_MS;
+    private Clock clock = System::nanoTime;
+
+    private QueryProfiler() {
+    }
+
+    public static QueryProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    public Cursor rawQuery(SQLiteDatabase db, String sql, String[] selectionArgs) {
+        explain(db, sql, selectionArgs);
+
+        Clock clock = getClock();
+        long start = clock.nanoTime();
+        Cursor cursor = db.rawQuery(sql, selectionArgs);
+        // getCount() forces the query to actually run so the timing is meaningful
+        int rows = cursor != null ? cursor.getCount() : 0;
+        long elapsedMs = (clock.nanoTime() - start) / 1000000;
+
+        Log.d(TAG, elapsedMs + "ms, " + rows + " rows: " + sql);
+        recordIfSlow(sql, elapsedMs, rows);
+        return cursor;
+    }
+
+    // Captures the query plan without running the query; returns null if the capture failed.
+    // The database is never touched while holding the profiler lock.
+    public List<String> explain(SQLiteDatabase db, String sql, String[] selectionArgs) {
+        synchronized (this) {
+            List<String> cached = queryPlans.get(sql);
+            if (cached != null) {
+                return new ArrayList<>(cached);
+            }
+            PlanFailure failure = planErrors.get(sql);
+            if (failure != null && failure.attempts >= MAX_PLAN_ATTEMPTS) {
+                return null;
+            }
+        }
+
+        List<String> plan = new ArrayList<>();
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, selectionArgs);
+            int detailIndex = cursor.getColumnIndex("detail");
+            if (detailIndex < 0) {
+                throw new IllegalStateException("EXPLAIN QUERY PLAN returned no detail column");
+            }
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detailIndex));
+            }
+        } catch (Exception e) {
+            recordPlanFailure(sql, String.valueOf(e.getMessage()));
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+
+        TableIndexes indexes = readTableIndexes(db);
+        boolean fullScan = false;
+        for (String detail : plan) {
+            Log.d(TAG, "Plan: " + detail + " <- " + sql);
+            String table = scannedTable(detail);
+            if (table != null && indexes != null && indexes.isScanWorthFlagging(table)) {
+                fullScan = true;
+                Log.w(TAG, "Full table scan on " + table + ": " + sql);
+            }
+        }
+
+        synchronized (this) {
+            queryPlans.put(sql, plan);
+            planErrors.remove(sql);
+            if (fullScan) {
+                fullScanQueries.add(sql);
+            }
+        }
+        return new ArrayList<>(plan);
+    }
+
+    public synchronized List<String> getQueryPlan(String sql) {
+        List<String> plan = queryPlans.get(sql);
+        return plan != null ? new ArrayList<>(plan) : null;
+    }
+
+    // True only when every table is reached through an index SEARCH; any SCAN, even over an index, is a full pass
+    public synchronized boolean usesIndex(String sql) {
+        List<String> plan = queryPlans.get(sql);
+        if (plan == null) {
+            return false;
+        }
+        boolean indexed = false;
+        for (String detail : plan) {
+            if (detail.startsWith("SCAN ") && !detail.equals("SCAN CONSTANT ROW")) {
+                return false;
+            }
+            if (detail.startsWith("SEARCH ") && detail.contains(" USING ")) {
+                indexed = true;
+            }
+        }
+        return indexed;
+    }
+
+    public synchronized boolean isFullScan(String sql) {
+        return fullScanQueries.contains(sql);
+    }
+
+    synchronized String getPlanError(String sql) {
+        PlanFailure failure = planErrors.get(sql);
+        return failure != null ? failure.message : null;
+    }
+
+    public synchronized List<Map<String, Object>> getSlowQueries() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map<String, Object> entry : slowQueries) {
+            String sql = (String) entry.get("sql");
+            Map<String, Object> copy = new HashMap<>(entry);
+            List<String> plan = queryPlans.get(sql);
+            copy.put("plan", plan != null ? new ArrayList<>(plan) : null);
+            copy.put("fullScan", fullScanQueries.contains(sql));
+            PlanFailure failure = planErrors.get(sql);
+            if (failure != null) {
+                copy.put("planError", failure.message);
+            }
+            result.add(copy);
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        queryPlans.clear();
+        planErrors.clear();
+        fullScanQueries.clear();
+        slowQueries.clear();
+    }
+
+    synchronized void setSlowQueryThresholdMs(long thresholdMs) {
+        slowQueryThresholdMs = thresholdMs;
+    }
+
+    synchronized void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private synchronized Clock getClock() {
+        return clock;
+    }
+
+    private synchronized void recordIfSlow(String sql, long elapsedMs, int rows) {
+        if (elapsedMs < slowQueryThresholdMs) {
+            return;
+        }
+        if (slowQueries.size() >= MAX_SLOW_QUERIES) {
+            slowQueries.removeFirst();
+        }
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("sql", sql);
+        entry.put("elapsedMs", elapsedMs);
+        entry.put("rows", rows);
+        entry.put("timestamp", System.currentTimeMillis());
+        slowQueries.addLast(entry);
+        Log.w(TAG, "Slow query (" + elapsedMs + "ms, " + rows + " rows): " + sql);
+    }
+
+    private synchronized void recordPlanFailure(String sql, String message) {
+        PlanFailure failure = planErrors.get(sql);
+        if (failure == null) {
+            failure = new PlanFailure();
+            planErrors.put(sql, failure);
+        }
+        failure.message = message;
+        failure.attempts++;
+        if (failure.attempts >= MAX_PLAN_ATTEMPTS) {
+            Log.e(TAG, "Giving up on query plan after " + failure.attempts + " attempts: " + message);
+        } else {
+            Log.e(TAG, "Error capturing query plan: " + message);
+        }
+    }
+
+    // Returns the table name for any full pass over a table ("SCAN t", "SCAN TABLE t",
+    // "SCAN t USING [COVERING] INDEX i"), null otherwise
+    private static String scannedTable(String detail) {
+        if (detail == null || !detail.startsWith("SCAN ")) {
+            return null;
+        }
+        String[] parts = detail.split(" ");
+        int nameIndex = "TABLE".equals(parts[1]) ? 2 : 1;
+        return nameIndex < parts.length ? parts[nameIndex].toLowerCase(Locale.ROOT) : null;
+    }
+
+    // Read fresh for every newly captured plan so tables and indexes added by later migrations are seen
+    private static TableIndexes readTableIndexes(SQLiteDatabase db) {
+        TableIndexes indexes = new TableIndexes();
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery(
+                    "SELECT type, tbl_name, name GLOB 'idx_*_date' OR name GLOB 'idx_*_vehicleId' FROM sqlite_master "
+                            + "WHERE type IN ('table', 'index') AND tbl_name NOT GLOB 'sqlite_*' "
+                            + "AND name NOT GLOB 'sqlite_autoindex_*'", null);
+            while (cursor.moveToNext()) {
+                String table = cursor.getString(1).toLowerCase(Locale.ROOT);
+                if ("table".equals(cursor.getString(0))) {
+                    indexes.tables.add(table);
+                } else {
+                    indexes.indexed.add(table);
+                    if (cursor.getInt(2) != 0) {
+                        indexes.hotIndexed.add(table);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading indexes: " + e.getMessage());
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return indexes;
+    }
+
+    private static class PlanFailure {
+        String message;
+        int attempts;
+    }
+
+    private static class TableIndexes {
+        final Set<String> tables = new HashSet<>();
+        final Set<String> indexed = new HashSet<>();
+        final Set<String> hotIndexed = new HashSet<>();
+
+        // Scans are flagged on tables with a date/vehicleId index and on tables with no explicit index at all
+        boolean isScanWorthFlagging(String table) {
+            return tables.contains(table) && (hotIndexed.contains(table) || !indexed.contains(table));
+        }
+    }
+}
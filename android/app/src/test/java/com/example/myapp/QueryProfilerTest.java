@@ -0,0 +1,178 @@
+package com.invictus.carmaintenance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class QueryProfilerTest {
+    private static final String[] DATE_ARGS = {"2026-10-19%"};
+
+    private DatabaseHelper dbHelper;
+    private SQLiteDatabase db;
+    private QueryProfiler profiler;
+
+    @Before
+    public void setUp() {
+        profiler = QueryProfiler.getInstance();
+        profiler.clear();
+        dbHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        db = dbHelper.getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        profiler.clear();
+        profiler.setSlowQueryThresholdMs(QueryProfiler.DEFAULT_SLOW_QUERY_THRESHOLD_MS);
+        profiler.setClock(System::nanoTime);
+    }
+
+    @Test
+    public void dailyTotalQueryIsFlaggedAsFullScan() {
+        db.execSQL("CREATE TABLE protein_intakes (id INTEGER PRIMARY KEY, datetime TEXT, proteinAmount REAL)");
+
+        assertNotNull(profiler.explain(db, DatabaseHelper.DAILY_TOTAL_QUERY, DATE_ARGS));
+        assertTrue(profiler.isFullScan(DatabaseHelper.DAILY_TOTAL_QUERY));
+        assertFalse(profiler.usesIndex(DatabaseHelper.DAILY_TOTAL_QUERY));
+    }
+
+    @Test
+    public void vehicleIdLookupUsesIndex() {
+        createFuelEntries();
+        String byVehicle = "SELECT * FROM fuel_entries WHERE vehicleId = ?";
+        String byNotes = "SELECT * FROM fuel_entries WHERE notes = ?";
+
+        profiler.explain(db, byVehicle, new String[] {"v1"});
+        profiler.explain(db, byNotes, new String[] {"n"});
+
+        assertTrue(profiler.usesIndex(byVehicle));
+        assertFalse(profiler.isFullScan(byVehicle));
+        assertTrue(profiler.isFullScan(byNotes));
+        assertFalse(profiler.usesIndex(byNotes));
+    }
+
+    @Test
+    public void indexOrderedScanIsFlaggedAsFullScan() {
+        createFuelEntries();
+        String ordered = "SELECT * FROM fuel_entries ORDER BY date DESC";
+
+        profiler.explain(db, ordered, null);
+
+        assertTrue(profiler.isFullScan(ordered));
+        assertFalse(profiler.usesIndex(ordered));
+    }
+
+    @Test
+    public void textPrimaryKeyTableWithoutIndexIsFlagged() {
+        db.execSQL("CREATE TABLE notes (id TEXT PRIMARY KEY, body TEXT)");
+        String byBody = "SELECT * FROM notes WHERE body = ?";
+
+        profiler.explain(db, byBody, new String[] {"b"});
+
+        assertTrue(profiler.isFullScan(byBody));
+    }
+
+    @Test
+    public void failedPlanCaptureIsRetried() {
+        assertNull(profiler.explain(db, DatabaseHelper.DAILY_TOTAL_QUERY, DATE_ARGS));
+        assertNull(profiler.getQueryPlan(DatabaseHelper.DAILY_TOTAL_QUERY));
+        assertNotNull(profiler.getPlanError(DatabaseHelper.DAILY_TOTAL_QUERY));
+
+        db.execSQL("CREATE TABLE protein_intakes (id INTEGER PRIMARY KEY, datetime TEXT, proteinAmount REAL)");
+
+        assertNotNull(profiler.explain(db, DatabaseHelper.DAILY_TOTAL_QUERY, DATE_ARGS));
+        assertNull(profiler.getPlanError(DatabaseHelper.DAILY_TOTAL_QUERY));
+        assertTrue(profiler.isFullScan(DatabaseHelper.DAILY_TOTAL_QUERY));
+    }
+
+    @Test
+    public void failedPlanCaptureGivesUpAfterMaxAttempts() {
+        for (int i = 0; i < QueryProfiler.MAX_PLAN_ATTEMPTS; i++) {
+            assertNull(profiler.explain(db, DatabaseHelper.DAILY_TOTAL_QUERY, DATE_ARGS));
+        }
+
+        db.execSQL("CREATE TABLE protein_intakes (id INTEGER PRIMARY KEY, datetime TEXT, proteinAmount REAL)");
+
+        assertNull(profiler.explain(db, DatabaseHelper.DAILY_TOTAL_QUERY, DATE_ARGS));
+        assertNotNull(profiler.getPlanError(DatabaseHelper.DAILY_TOTAL_QUERY));
+    }
+
+    @Test
+    public void slowQueryIsRecordedWithPlanAndRowCount() {
+        createFuelEntries();
+        db.execSQL("INSERT INTO fuel_entries (id, vehicleId, date, notes) VALUES ('a', 'v1', '2026-10-19', '')");
+        db.execSQL("INSERT INTO fuel_entries (id, vehicleId, date, notes) VALUES ('b', 'v1', '2026-10-18', '')");
+        useClockStepping(100);
+        String byNotes = "SELECT * FROM fuel_entries WHERE notes = ?";
+
+        profiler.rawQuery(db, byNotes, new String[] {""}).close();
+
+        List<Map<String, Object>> slow = profiler.getSlowQueries();
+        assertEquals(1, slow.size());
+        Map<String, Object> entry = slow.get(0);
+        assertEquals(byNotes, entry.get("sql"));
+        assertEquals(100L, entry.get("elapsedMs"));
+        assertEquals(2, entry.get("rows"));
+        assertEquals(Boolean.TRUE, entry.get("fullScan"));
+        assertNotNull(entry.get("plan"));
+        assertFalse(entry.containsKey("planError"));
+    }
+
+    @Test
+    public void fastQueryIsNotRecorded() {
+        createFuelEntries();
+        useClockStepping(QueryProfiler.DEFAULT_SLOW_QUERY_THRESHOLD_MS - 1);
+
+        profiler.rawQuery(db, "SELECT * FROM fuel_entries", null).close();
+
+        assertTrue(profiler.getSlowQueries().isEmpty());
+    }
+
+    @Test
+    public void slowQueryLogDropsOldestEntryWhenFull() {
+        profiler.setSlowQueryThresholdMs(0);
+        int total = QueryProfiler.MAX_SLOW_QUERIES + 5;
+
+        for (int i = 0; i < total; i++) {
+            Cursor cursor = profiler.rawQuery(db, "SELECT " + i, null);
+            cursor.close();
+        }
+
+        List<Map<String, Object>> slow = profiler.getSlowQueries();
+        assertEquals(QueryProfiler.MAX_SLOW_QUERIES, slow.size());
+        assertEquals("SELECT 5", slow.get(0).get("sql"));
+        assertEquals("SELECT " + (total - 1), slow.get(slow.size() - 1).get("sql"));
+    }
+
+    private void createFuelEntries() {
+        db.execSQL("CREATE TABLE fuel_entries (id TEXT PRIMARY KEY, vehicleId TEXT, date TEXT, notes TEXT)");
+        db.execSQL("CREATE INDEX idx_fuel_entries_vehicleId ON fuel_entries(vehicleId)");
+        db.execSQL("CREATE INDEX idx_fuel_entries_date ON fuel_entries(date DESC)");
+    }
+
+    // Each clock read advances by stepMs, so one profiled query measures exactly stepMs
+    private void useClockStepping(final long stepMs) {
+        final long[] now = {0};
+        profiler.setClock(() -> {
+            now[0] += stepMs * 1000000;
+            return now[0];
+        });
+    }
+}